@@ -0,0 +1,141 @@
+package tk.npecode.config.benchmark;
+
+import tk.npecode.config.type.Compression;
+import tk.npecode.config.type.builtin.JSONConfigurationType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the size on disk and the reload time of plain and compressed JSON configurations.
+ * <p>
+ * All formats are warmed up together before anything is measured, and the measurement rounds rotate
+ * the order of the formats so none of them always runs first.
+ *
+ * @author AmpTheDev
+ */
+public final class CompressionBenchmark {
+    /**
+     * The amount of entries in each generated configuration.
+     */
+    private static final int[] SIZES = {100, 1000, 10000, 100000};
+    /**
+     * How long to reload all formats of all sizes before measuring.
+     */
+    private static final long WARMUP_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    /**
+     * The amount of measurement rounds per size, each of which reloads every format.
+     */
+    private static final int ROUNDS = 15;
+    /**
+     * The minimum time a single measurement should take, to keep the timer overhead negligible.
+     */
+    private static final long MIN_MEASUREMENT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * Since this is a standalone program, we don't want to be able to initiate instances of it.
+     */
+    private CompressionBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Compression[] compressions = Compression.values();
+        List<File> files = new ArrayList<>();
+        JSONConfigurationType[][] types = new JSONConfigurationType[SIZES.length][compressions.length];
+        for (int i = 0; i < SIZES.length; i++) {
+            for (int j = 0; j < compressions.length; j++) {
+                File file = File.createTempFile("npecode.config.benchmark", ".json");
+                file.deleteOnExit();
+                files.add(file);
+                types[i][j] = new JSONConfigurationType(file, compressions[j]);
+                populate(types[i][j], SIZES[i]);
+                types[i][j].flush();
+            }
+        }
+
+        long warmupEnd = System.currentTimeMillis() + WARMUP_MILLIS;
+        while (System.currentTimeMillis() < warmupEnd) {
+            for (JSONConfigurationType[] sizeTypes : types) {
+                for (JSONConfigurationType type : sizeTypes) {
+                    type.reload();
+                }
+            }
+        }
+
+        System.out.printf("%-10s %-10s %14s %14s %14s%n", "entries", "format", "bytes on disk", "median (ms)", "min (ms)");
+        for (int i = 0; i < SIZES.length; i++) {
+            int iterations = calibrate(types[i]);
+            List<List<Double>> samples = new ArrayList<>();
+            for (int j = 0; j < compressions.length; j++) {
+                samples.add(new ArrayList<>());
+            }
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int k = 0; k < compressions.length; k++) {
+                    int j = (round + k) % compressions.length;
+                    samples.get(j).add(measure(types[i][j], iterations));
+                }
+            }
+            for (int j = 0; j < compressions.length; j++) {
+                List<Double> sorted = samples.get(j);
+                Collections.sort(sorted);
+                System.out.printf("%-10d %-10s %14d %14.3f %14.3f%n", SIZES[i], compressions[j],
+                        files.get(i * compressions.length + j).length(), sorted.get(sorted.size() / 2), sorted.get(0));
+            }
+        }
+
+        for (File file : files) {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Determines how many reloads one measurement needs to take at least {@link #MIN_MEASUREMENT_NANOS}.
+     *
+     * @param types the configuration types of one size
+     * @return the amount of reloads per measurement
+     * @throws IOException if a reload fails
+     */
+    private static int calibrate(JSONConfigurationType[] types) throws IOException {
+        long fastest = Long.MAX_VALUE;
+        for (JSONConfigurationType type : types) {
+            long start = System.nanoTime();
+            type.reload();
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return (int) Math.max(1, MIN_MEASUREMENT_NANOS / Math.max(1, fastest));
+    }
+
+    /**
+     * Measures the average reload time of a configuration.
+     *
+     * @param type       the configuration type
+     * @param iterations the amount of reloads
+     * @return the average reload time in milliseconds
+     * @throws IOException if a reload fails
+     */
+    private static double measure(JSONConfigurationType type, int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            type.reload();
+        }
+        return (System.nanoTime() - start) / 1e6 / iterations;
+    }
+
+    /**
+     * Fills a configuration with generated entries spread over categories.
+     *
+     * @param type the configuration type
+     * @param size the amount of entries
+     */
+    static void populate(JSONConfigurationType type, int size) {
+        for (int i = 0; i < size; i++) {
+            type.set("category_" + (i % 64), "option_" + i, "value of option " + i);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package tk.npecode.config.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records stop-the-world GC pauses from the collectors' notifications.
+ * <p>
+ * Collectors that report concurrent work separately ({@code ZGC Cycles}, {@code Shenandoah Cycles},
+ * {@code G1 Concurrent GC}) are skipped, since their durations aren't pauses and overlap with the pause beans.
+ * CMS reports its whole old generation cycle as one collection, so only its young collections are counted.
+ *
+ * @author AmpTheDev
+ */
+final class GcPauseMonitor implements NotificationListener {
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private long pauses;
+    private long totalMillis;
+    private long maxMillis;
+
+    /**
+     * Starts listening for GC pauses.
+     */
+    void start() {
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter && isPauseCollector(bean.getName())) {
+                NotificationEmitter emitter = (NotificationEmitter) bean;
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * Stops listening for GC pauses.
+     */
+    void stop() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (Exception ignored) {
+                // the listener is only registered once, so this can't happen
+            }
+        }
+        emitters.clear();
+    }
+
+    @Override
+    public synchronized void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long duration = info.getGcInfo().getDuration();
+        pauses++;
+        totalMillis += duration;
+        maxMillis = Math.max(maxMillis, duration);
+    }
+
+    synchronized long getPauses() {
+        return pauses;
+    }
+
+    synchronized long getTotalMillis() {
+        return totalMillis;
+    }
+
+    synchronized long getMaxMillis() {
+        return maxMillis;
+    }
+
+    /**
+     * Determines if a collector's notifications describe pauses.
+     *
+     * @param name the collector name
+     * @return {@code true} if they're pauses, {@code false} if they include concurrent work
+     */
+    private static boolean isPauseCollector(String name) {
+        return !name.contains("Cycles") && !name.contains("Concurrent");
+    }
+}
@@ -0,0 +1,90 @@
+package tk.npecode.config.benchmark;
+
+/**
+ * A fixed-size log-linear histogram for latencies, accurate to about 6%.
+ * It isn't thread-safe, so every thread should record into its own histogram and merge them afterwards.
+ *
+ * @author AmpTheDev
+ */
+final class LatencyHistogram {
+    /**
+     * The amount of linear sub-buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 16;
+    /**
+     * Values below this are stored exactly.
+     */
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private final long[] counts = new long[LINEAR_LIMIT + (63 - 5) * SUB_BUCKETS];
+    private long total;
+    private long max;
+
+    /**
+     * Records a value.
+     *
+     * @param value the value (negative values are recorded as 0)
+     */
+    void record(long value) {
+        if (value < 0) value = 0;
+        counts[indexOf(value)]++;
+        total++;
+        if (value > max) max = value;
+    }
+
+    /**
+     * Adds all values of another histogram to this one.
+     *
+     * @param other the other histogram
+     */
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the value at a percentile.
+     *
+     * @param percentile the percentile (between 0 and 100)
+     * @return the value, or 0 if nothing was recorded
+     */
+    long percentile(double percentile) {
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(valueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - 4;
+        return LINEAR_LIMIT + (msb - 5) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the upper bound of a bucket.
+     *
+     * @param index the bucket index
+     * @return the largest value stored in the bucket
+     */
+    private static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int msb = (index - LINEAR_LIMIT) / SUB_BUCKETS + 5;
+        long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = msb - 4;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,358 @@
+package tk.npecode.config.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import tk.npecode.config.Configuration;
+import tk.npecode.config.annotation.ConfigurationClass;
+import tk.npecode.config.annotation.Option;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A load test that drives a JSON configuration the way a service would:
+ * reader threads read {@code @Option} fields and call {@link Configuration#get(String, String, Class)},
+ * a maintenance thread calls {@link Configuration#reload()} and {@link Configuration#save()} on a cadence,
+ * and a rewriter thread replaces the JSON file with a new generation of values.
+ * <p>
+ * Every generation stores a {@code generation} value and a {@code check} value derived from it.
+ * A reader that reads a pair that doesn't match has seen skew between two separate reads, which the current API
+ * allows, so it's only reported. A reader that gets {@code null} has seen a configuration without its values.
+ * <p>
+ * Settings are read from system properties prefixed with {@code loadtest.}, see {@link #property(String, long)}.
+ * The process exits with status 1 if {@code loadtest.strict} is set and a missing value, error or stuck thread was detected.
+ *
+ * @author AmpTheDev
+ */
+public final class LoadTest {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String CATEGORY = "loadtest";
+    private static final String PADDING_CATEGORY = "padding";
+    /**
+     * The amount of field pair reads timed together, since a single volatile read is far below the timer resolution.
+     */
+    private static final int FIELD_BATCH = 64;
+    /**
+     * How long to wait for the threads to stop before treating them as stuck.
+     */
+    private static final long STOP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final int readers = (int) property("readers", 8);
+    private final int entries = (int) property("entries", 1000);
+    private final long reloadIntervalMillis = property("reloadIntervalMs", 20);
+    private final long saveIntervalMillis = property("saveIntervalMs", 100);
+    private final long rewriteIntervalMillis = property("rewriteIntervalMs", 50);
+    private final long warmupSeconds = property("warmupSeconds", 5);
+    private final long durationSeconds = property("durationSeconds", 30);
+    private final boolean strict = Boolean.getBoolean("loadtest.strict");
+
+    private final File file;
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong saves = new AtomicLong();
+    private final AtomicLong rewrites = new AtomicLong();
+    private final AtomicLong skewedFieldReads = new AtomicLong();
+    private final AtomicLong skewedGetReads = new AtomicLong();
+    private final AtomicLong missingGetReads = new AtomicLong();
+    private final AtomicLong readErrors = new AtomicLong();
+    private final AtomicLong maintenanceErrors = new AtomicLong();
+    private final LongAdder readerLoops = new LongAdder();
+    private final List<LatencyHistogram> fieldHistograms = new ArrayList<>();
+    private final List<LatencyHistogram> getHistograms = new ArrayList<>();
+    private volatile boolean measuring = false;
+    private volatile boolean running = true;
+
+    private LoadTest(File file) {
+        this.file = file;
+    }
+
+    public static void main(String[] args) throws Exception {
+        File file = File.createTempFile("npecode.config.loadtest", ".json");
+        file.deleteOnExit();
+        boolean passed;
+        try {
+            passed = new LoadTest(file).run();
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the load test and prints the report.
+     *
+     * @return {@code false} if running in strict mode and a missing value, error or stuck thread was detected
+     * @throws Exception if the configuration can't be initialized or a thread is interrupted
+     */
+    private boolean run() throws Exception {
+        rewrite();
+        Configuration configuration = Configuration.newJsonConfig(file)
+                .addClass(LoadTestConfiguration.class)
+                .initialize();
+
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(readers);
+        for (int i = 0; i < readers; i++) {
+            LatencyHistogram fieldHistogram = new LatencyHistogram();
+            LatencyHistogram getHistogram = new LatencyHistogram();
+            fieldHistograms.add(fieldHistogram);
+            getHistograms.add(getHistogram);
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                read(configuration, fieldHistogram, getHistogram);
+            }, "loadtest-reader-" + i);
+            // a stuck reader must not keep the process alive after the report
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        started.await();
+
+        // reload and save share a thread, like a service that periodically syncs its configuration
+        ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "loadtest-maintenance"));
+        maintenance.scheduleAtFixedRate(() -> maintain(configuration::reload, reloads), reloadIntervalMillis, reloadIntervalMillis, TimeUnit.MILLISECONDS);
+        maintenance.scheduleAtFixedRate(() -> maintain(configuration::save, saves), saveIntervalMillis, saveIntervalMillis, TimeUnit.MILLISECONDS);
+        ScheduledExecutorService rewriter = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "loadtest-rewriter"));
+        rewriter.scheduleAtFixedRate(() -> maintain(this::rewrite, rewrites), rewriteIntervalMillis, rewriteIntervalMillis, TimeUnit.MILLISECONDS);
+
+        System.out.printf("Running %d readers over %d entries for %ds (%ds warmup)...%n", readers, entries, durationSeconds, warmupSeconds);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        GcPauseMonitor gcPauses = new GcPauseMonitor();
+        gcPauses.start();
+        long start = System.nanoTime();
+        measuring = true;
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        measuring = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        gcPauses.stop();
+
+        running = false;
+        maintenance.shutdown();
+        rewriter.shutdown();
+        long stopDeadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        int stuckThreads = 0;
+        for (Thread thread : threads) {
+            thread.join(Math.max(1, stopDeadline - System.currentTimeMillis()));
+            if (thread.isAlive()) stuckThreads++;
+        }
+        if (!maintenance.awaitTermination(Math.max(1, stopDeadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+            stuckThreads++;
+        }
+        if (!rewriter.awaitTermination(Math.max(1, stopDeadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+            stuckThreads++;
+        }
+
+        LatencyHistogram fieldLatency = merge(fieldHistograms);
+        LatencyHistogram getLatency = merge(getHistograms);
+        System.out.println();
+        System.out.printf("%-28s %10s %10s %10s %10s%n", "latency (ns)", "p50", "p99", "p99.9", "max");
+        printLatency("@Option batch of " + FIELD_BATCH, fieldLatency);
+        printLatency("Configuration.get (1 call)", getLatency);
+        System.out.printf("%-28s %10s %10s %10s %10d%n", "longest GC pause (ms res.)", "", "", "", TimeUnit.MILLISECONDS.toNanos(gcPauses.getMaxMillis()));
+        System.out.printf("every sample includes the ~%d ns timer overhead%n", timerOverhead());
+        System.out.printf("%-28s %10.0f/s (each reads the fields %d times and calls Configuration.get twice)%n",
+                "reader loops", readerLoops.sum() / elapsedSeconds, FIELD_BATCH);
+        System.out.println();
+        System.out.printf("%-28s %10.1f/s%n", "reloads", reloads.get() / elapsedSeconds);
+        System.out.printf("%-28s %10.1f/s%n", "saves", saves.get() / elapsedSeconds);
+        System.out.printf("%-28s %10.1f/s%n", "file rewrites", rewrites.get() / elapsedSeconds);
+        System.out.printf("%-28s %10d pauses, %d ms total (%.2f%% of run time), %d ms max%n", "GC pauses",
+                gcPauses.getPauses(), gcPauses.getTotalMillis(), gcPauses.getTotalMillis() / (elapsedSeconds * 10), gcPauses.getMaxMillis());
+        System.out.println();
+        System.out.printf("%-28s %10d%n", "skewed @Option pairs", skewedFieldReads.get());
+        System.out.printf("%-28s %10d%n", "skewed get pairs", skewedGetReads.get());
+        System.out.printf("%-28s %10d%n", "missing get reads", missingGetReads.get());
+        System.out.printf("%-28s %10d%n", "read errors", readErrors.get());
+        System.out.printf("%-28s %10d%n", "reload/save errors", maintenanceErrors.get());
+        System.out.printf("%-28s %10d%n", "stuck threads", stuckThreads);
+
+        // skew between two separate reads is allowed by the API, so only defects within a single call fail the gate
+        long failures = missingGetReads.get() + readErrors.get() + maintenanceErrors.get() + stuckThreads;
+        return !strict || failures == 0;
+    }
+
+    /**
+     * Reads the configuration until the test stops, checking every generation/check pair.
+     *
+     * @param configuration  the configuration
+     * @param fieldHistogram the histogram for field reads
+     * @param getHistogram   the histogram for {@link Configuration#get(String, String, Class)} reads
+     */
+    private void read(Configuration configuration, LatencyHistogram fieldHistogram, LatencyHistogram getHistogram) {
+        long[] generationBatch = new long[FIELD_BATCH];
+        long[] checkBatch = new long[FIELD_BATCH];
+        while (running) {
+            // errors are counted instead of killing the thread, which would silently lose its samples
+            try {
+                long start = System.nanoTime();
+                for (int i = 0; i < FIELD_BATCH; i++) {
+                    generationBatch[i] = LoadTestConfiguration.generation;
+                    checkBatch[i] = LoadTestConfiguration.check;
+                }
+                long end = System.nanoTime();
+                if (measuring) {
+                    fieldHistogram.record(end - start);
+                    for (int i = 0; i < FIELD_BATCH; i++) {
+                        if (checkBatch[i] != checkOf(generationBatch[i])) skewedFieldReads.incrementAndGet();
+                    }
+                }
+
+                start = System.nanoTime();
+                Long generation = configuration.get(CATEGORY, "generation", Long.class);
+                end = System.nanoTime();
+                if (measuring) getHistogram.record(end - start);
+                start = System.nanoTime();
+                Long check = configuration.get(CATEGORY, "check", Long.class);
+                end = System.nanoTime();
+                if (measuring) {
+                    getHistogram.record(end - start);
+                    if (generation == null || check == null) {
+                        missingGetReads.incrementAndGet();
+                    } else if (check != checkOf(generation)) {
+                        skewedGetReads.incrementAndGet();
+                    }
+                }
+            } catch (Throwable t) {
+                if (measuring) readErrors.incrementAndGet();
+            }
+            if (measuring) readerLoops.increment();
+        }
+    }
+
+    /**
+     * Runs a maintenance task, counting it if it succeeds.
+     *
+     * @param task    the task
+     * @param counter the counter to increment
+     */
+    private void maintain(IOTask task, AtomicLong counter) {
+        if (!running) return;
+        try {
+            task.run();
+            if (measuring) counter.incrementAndGet();
+        } catch (Throwable t) {
+            // anything thrown out of a scheduled task silently cancels it
+            if (measuring) maintenanceErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Replaces the JSON file with a new generation, the way an external tool would.
+     *
+     * @throws IOException if it fails to write the file
+     */
+    private void rewrite() throws IOException {
+        long generation = generations.incrementAndGet();
+        JsonObject root = new JsonObject();
+        JsonObject values = new JsonObject();
+        values.addProperty("generation", generation);
+        values.addProperty("check", checkOf(generation));
+        root.add(CATEGORY, values);
+        JsonObject padding = new JsonObject();
+        for (int i = 0; i < entries; i++) {
+            padding.addProperty("option_" + i, "value of option " + i + " in generation " + generation);
+        }
+        root.add(PADDING_CATEGORY, padding);
+
+        // write to a temporary file first so the configuration never reloads a partially written file
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(temp.toPath()), StandardCharsets.UTF_8)) {
+            GSON.toJson(root, writer);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void printLatency(String name, LatencyHistogram histogram) {
+        System.out.printf("%-28s %10d %10d %10d %10d%n", name,
+                histogram.percentile(50), histogram.percentile(99), histogram.percentile(99.9), histogram.getMax());
+    }
+
+    /**
+     * Estimates the cost of a pair of {@link System#nanoTime()} calls.
+     *
+     * @return the median overhead in nanoseconds
+     */
+    private static long timerOverhead() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100000; i++) {
+            long start = System.nanoTime();
+            histogram.record(System.nanoTime() - start);
+        }
+        return histogram.percentile(50);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static LatencyHistogram merge(List<LatencyHistogram> histograms) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            merged.merge(histogram);
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the check value that belongs to a generation.
+     *
+     * @param generation the generation
+     * @return the check value
+     */
+    private static long checkOf(long generation) {
+        return generation * 0x9E3779B97F4A7C15L + 1;
+    }
+
+    /**
+     * Returns a setting from the {@code loadtest.} system properties.
+     * Available settings are {@code readers}, {@code entries}, {@code reloadIntervalMs}, {@code saveIntervalMs},
+     * {@code rewriteIntervalMs}, {@code warmupSeconds}, {@code durationSeconds} and {@code strict}.
+     *
+     * @param name         the setting name
+     * @param defaultValue the default value
+     * @return the value
+     */
+    private static long property(String name, long defaultValue) {
+        return Long.getLong("loadtest." + name, defaultValue);
+    }
+
+    /**
+     * A task that can throw an {@link IOException}.
+     */
+    private interface IOTask {
+        void run() throws IOException;
+    }
+
+    @ConfigurationClass(CATEGORY)
+    public static class LoadTestConfiguration {
+        @Option
+        private static volatile long generation = 0;
+        @Option
+        private static volatile long check = checkOf(0);
+    }
+}
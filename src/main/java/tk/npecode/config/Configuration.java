@@ -2,6 +2,7 @@ package tk.npecode.config;
 
 import tk.npecode.config.annotation.ConfigurationClass;
 import tk.npecode.config.annotation.Option;
+import tk.npecode.config.type.Compression;
 import tk.npecode.config.type.ConfigurationType;
 import tk.npecode.config.type.builtin.JSONConfigurationType;
 
@@ -202,6 +203,17 @@ public class Configuration {
         return new Configuration(new JSONConfigurationType(jsonFile));
     }
 
+    /**
+     * Constructs a new compressed JSON configuration.
+     *
+     * @param jsonFile    the JSON file
+     * @param compression the compression used when saving
+     * @return the configuration
+     */
+    public static Configuration newJsonConfig(File jsonFile, Compression compression) {
+        return new Configuration(new JSONConfigurationType(jsonFile, compression));
+    }
+
     /**
      * Returns the effective category name for a configuration class
      *
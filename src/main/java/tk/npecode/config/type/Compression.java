@@ -0,0 +1,169 @@
+package tk.npecode.config.type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A compression format for file-based configuration types.
+ * Compressed files are detected by their magic bytes when read, so the configured format only affects writing.
+ *
+ * @author AmpTheDev
+ */
+public enum Compression {
+    /**
+     * Stores the file as-is.
+     */
+    NONE {
+        @Override
+        OutputStream wrap(OutputStream out, int level) {
+            return out;
+        }
+    },
+    /**
+     * Stores the file in the GZIP format.
+     */
+    GZIP {
+        @Override
+        OutputStream wrap(OutputStream out, int level) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    },
+    /**
+     * Stores the file in the zlib (Deflate) format.
+     */
+    DEFLATE {
+        @Override
+        OutputStream wrap(OutputStream out, int level) {
+            return new DeflaterOutputStream(out, new Deflater(level), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    // the deflater isn't the stream's default one so it isn't released automatically
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+    };
+
+    /**
+     * The buffer size used for file and (de)compression streams.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Wraps a file output stream with this compression format.
+     *
+     * @param out   the output stream
+     * @param level the compression level
+     * @return the wrapped output stream
+     * @throws IOException if it fails to write the compression header
+     */
+    abstract OutputStream wrap(OutputStream out, int level) throws IOException;
+
+    /**
+     * Opens a file for writing using this compression format.
+     *
+     * @param file  the file
+     * @param level the compression level (0-9 or {@link Deflater#DEFAULT_COMPRESSION})
+     * @return the output stream
+     * @throws IOException if it fails to open the file
+     */
+    public OutputStream openOutput(File file, int level) throws IOException {
+        ensureValidLevel(level);
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+        try {
+            return wrap(out, level);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file for reading, decompressing it if it starts with GZIP or zlib magic bytes.
+     *
+     * @param file the file
+     * @return the input stream
+     * @throws IOException if it fails to open or read the file
+     */
+    public static InputStream openInput(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            switch (detect(in)) {
+                case GZIP:
+                    return new GZIPInputStream(in, BUFFER_SIZE);
+                case DEFLATE:
+                    return new InflaterInputStream(in, new Inflater(), BUFFER_SIZE) {
+                        @Override
+                        public void close() throws IOException {
+                            // the inflater isn't the stream's default one so it isn't released automatically
+                            try {
+                                super.close();
+                            } finally {
+                                inf.end();
+                            }
+                        }
+                    };
+                default:
+                    return in;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Detects the compression format of a stream by its magic bytes without consuming them.
+     * <p>
+     * Zlib streams are only detected by the headers {@link Deflater} writes (a 32K window without a preset dictionary),
+     * which are {@code 0x78} followed by {@code 0x01}, {@code 0x5e}, {@code 0x9c} or {@code 0xda}.
+     * Plain files can't be told apart from those, so DEFLATE detection is only reliable for content
+     * that can't start with these bytes, for example JSON ({@code "x^"} is the only printable one).
+     *
+     * @param in the input stream (must support marks)
+     * @return the compression format
+     * @throws IOException if it fails to read the stream
+     */
+    public static Compression detect(InputStream in) throws IOException {
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        if (b0 == -1 || b1 == -1) return NONE;
+        if (b0 == 0x1f && b1 == 0x8b) return GZIP;
+        if (b0 == 0x78 && (b1 == 0x01 || b1 == 0x5e || b1 == 0x9c || b1 == 0xda)) return DEFLATE;
+        return NONE;
+    }
+
+    /**
+     * Throws an exception if a compression level is invalid.
+     *
+     * @param level the compression level
+     * @throws IllegalArgumentException if it's invalid
+     */
+    public static void ensureValidLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Invalid compression level " + level);
+        }
+    }
+}
@@ -6,16 +6,21 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import tk.npecode.config.Configuration;
+import tk.npecode.config.type.Compression;
 import tk.npecode.config.type.ConfigurationType;
 import tk.npecode.config.utils.ClassUtils;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.zip.Deflater;
 
 /**
  * A Gson-based JSON configuration backend.
+ * The file is read and written in the platform charset, whether it's compressed or not.
  *
  * @author AmpTheDev
  */
@@ -23,9 +28,30 @@ public class JSONConfigurationType implements ConfigurationType {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final JsonParser PARSER = new JsonParser();
     private final File jsonFile;
+    private final Compression compression;
+    private final int compressionLevel;
 
     public JSONConfigurationType(File jsonFile) {
+        this(jsonFile, Compression.NONE);
+    }
+
+    public JSONConfigurationType(File jsonFile, Compression compression) {
+        this(jsonFile, compression, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructs a JSON configuration type that stores the file compressed.
+     * Compressed files are always detected when reloading, regardless of the compression used for saving.
+     *
+     * @param jsonFile         the JSON file
+     * @param compression      the compression used when saving
+     * @param compressionLevel the compression level (0-9 or {@link Deflater#DEFAULT_COMPRESSION})
+     */
+    public JSONConfigurationType(File jsonFile, Compression compression, int compressionLevel) {
+        Compression.ensureValidLevel(compressionLevel);
         this.jsonFile = jsonFile.getAbsoluteFile();
+        this.compression = compression;
+        this.compressionLevel = compressionLevel;
     }
 
     private JsonObject object = new JsonObject();
@@ -39,9 +65,10 @@ public class JSONConfigurationType implements ConfigurationType {
     public void reload() throws IOException {
         object = new JsonObject();
         if (jsonFile.exists()) {
-            FileReader reader = new FileReader(jsonFile);
-            JsonElement element = PARSER.parse(reader);
-            reader.close();
+            JsonElement element;
+            try (Reader reader = new InputStreamReader(Compression.openInput(jsonFile))) {
+                element = PARSER.parse(reader);
+            }
             if (element.isJsonObject()) {
                 object = element.getAsJsonObject();
             }
@@ -56,9 +83,9 @@ public class JSONConfigurationType implements ConfigurationType {
                 throw new IllegalStateException("Failed to create directory " + parentFile.getPath());
             }
         }
-        FileWriter writer = new FileWriter(jsonFile);
-        GSON.toJson(object, writer);
-        writer.close();
+        try (Writer writer = new OutputStreamWriter(compression.openOutput(jsonFile, compressionLevel))) {
+            GSON.toJson(object, writer);
+        }
     }
 
     @Override
@@ -4,8 +4,17 @@ import org.junit.Test;
 import tk.npecode.config.Configuration;
 import tk.npecode.config.annotation.ConfigurationClass;
 import tk.npecode.config.annotation.Option;
+import tk.npecode.config.type.Compression;
+import tk.npecode.config.type.builtin.JSONConfigurationType;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ConfigurationTests {
     private static final File JSON_TEST_FILE = new File("npecode.config.test.json");
@@ -31,6 +40,86 @@ public class ConfigurationTests {
         }
     }
 
+    @Test
+    public void testCompressedJson() throws Throwable {
+        String category = TestConfiguration2.class.getName();
+        Throwable e = null;
+        try {
+            for (Compression compression : Compression.values()) {
+                Configuration configuration = Configuration.newJsonConfig(JSON_TEST_FILE, compression)
+                        .addClass(TestConfiguration2.class)
+                        .initialize();
+                TestConfiguration2.value2 = 55;
+                configuration.save();
+                try (InputStream in = new BufferedInputStream(new FileInputStream(JSON_TEST_FILE))) {
+                    assertEquals(compression, Compression.detect(in));
+                }
+                TestConfiguration2.value2 = 0;
+                configuration.reload();
+                assertEquals(55, TestConfiguration2.value2);
+
+                // reloading is independent of the compression used for saving
+                TestConfiguration2.value2 = 0;
+                Configuration plain = new Configuration(new JSONConfigurationType(JSON_TEST_FILE, Compression.NONE, 0))
+                        .addClass(TestConfiguration2.class)
+                        .initialize();
+                assertEquals(55, TestConfiguration2.value2);
+                assertEquals(Integer.valueOf(55), plain.get(category, "test_value_2", Integer.class));
+            }
+        } catch (Throwable t) {
+            e = t;
+        }
+        TestConfiguration2.value2 = 30;
+        if (JSON_TEST_FILE.exists() && !JSON_TEST_FILE.delete()) {
+            JSON_TEST_FILE.deleteOnExit();
+        }
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCompressionLevel() {
+        new JSONConfigurationType(JSON_TEST_FILE, Compression.GZIP, 11);
+    }
+
+    @Test
+    public void testCompressionLevel() throws Throwable {
+        File bestSpeedFile = new File("npecode.config.test.1.json");
+        File bestCompressionFile = new File("npecode.config.test.9.json");
+        Throwable e = null;
+        try {
+            for (Compression compression : new Compression[]{Compression.GZIP, Compression.DEFLATE}) {
+                JSONConfigurationType bestSpeed = new JSONConfigurationType(bestSpeedFile, compression, Deflater.BEST_SPEED);
+                JSONConfigurationType bestCompression = new JSONConfigurationType(bestCompressionFile, compression, Deflater.BEST_COMPRESSION);
+                for (int i = 0; i < 1000; i++) {
+                    bestSpeed.set("category_" + (i % 10), "option_" + i, "value " + (i * 7919 % 1000));
+                    bestCompression.set("category_" + (i % 10), "option_" + i, "value " + (i * 7919 % 1000));
+                }
+                bestSpeed.flush();
+                bestCompression.flush();
+                bestSpeed.reload();
+                bestCompression.reload();
+                for (int i = 0; i < 1000; i += 97) {
+                    String expected = "value " + (i * 7919 % 1000);
+                    assertEquals(expected, bestSpeed.get("category_" + (i % 10), "option_" + i, String.class));
+                    assertEquals(expected, bestCompression.get("category_" + (i % 10), "option_" + i, String.class));
+                }
+                assertTrue(bestCompressionFile.length() <= bestSpeedFile.length());
+            }
+        } catch (Throwable t) {
+            e = t;
+        }
+        for (File file : new File[]{bestSpeedFile, bestCompressionFile}) {
+            if (file.exists() && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+        if (e != null) {
+            throw e;
+        }
+    }
+
     @ConfigurationClass("test")
     public static class TestConfiguration {
         @Option("test_1")